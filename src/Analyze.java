@@ -0,0 +1,373 @@
+
+/*
+/============================================================\
+| Assignment: Program # 1: Solitaire Encryption               |
+| Author: Joseph Anneli                                       |
+|                                                             |
+| This file implements a keystream analyzer for the Solitaire |
+| cipher. For each deck it finds the cycle length of the deck |
+| state with Brent's algorithm, and reports the joker         |
+| rejection rate and the distribution of keystream values.    |
+| Deck states are packed into three longs so that only two    |
+| states are kept in memory per deck, however long the run.   |
+|                                                             |
+| Language: Java (JDK 24)                                     |
+| Ex. Packages: java.io, java.nio.file, java.util,            |
+|               java.util.concurrent                          |
+\============================================================/
+*/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/************************************************************\
+ * Class: Analyze                                            *
+ * Author: Joseph Anneli                                     *
+ *                                                           *
+ * Purpose: Measures how good a deck is as a key: the period *
+ * of its deck state, how often a step lands on a joker and  *
+ * is rejected, and how evenly the keystream values 1–26 are *
+ * spread. Many decks are analyzed in parallel with          *
+ * fork-join.                                                *
+ *                                                           *
+ * Usage:                                                    *
+ *   java Analyze <maxSteps> <deck file | random:N[:seed]>...*
+ *                                                           *
+ * Class Methods:                                            *
+ *  - main(String[]): void                                   *
+ *  - analyze(int[], long): Result                           *
+ *  - pack(int[], long[]): void                              *
+ \************************************************************/
+
+
+public class Analyze {
+
+    /************************************************************\
+     * Class: Result                                             *
+     * Purpose: Statistics for a single deck. period and tail    *
+     * are -1 if no cycle was found within the step limit.       *
+     \************************************************************/
+
+
+    static class Result {
+        String name;
+        long steps;
+        long rejections;
+        long period = -1;
+        long tail = -1;
+        final long[] histogram = new long[27];   // index 1–26
+
+        double rejectionRate() {
+            return steps == 0 ? 0 : (double) rejections / steps;
+        }
+
+        // NaN when every step was rejected and there is nothing to test
+        double chiSquare() {
+            long letters = steps - rejections;
+            if (letters == 0) {
+                return Double.NaN;
+            }
+            double expected = letters / 26.0;
+            double chi = 0;
+            for (int v = 1; v <= 26; v++) {
+                double d = histogram[v] - expected;
+                chi += d * d / expected;
+            }
+            return chi;
+        }
+    }
+
+
+    /************************************************************\
+     * Method: main                                              *
+     * Purpose: Entry point of the analyzer. Loads or generates  *
+     * the decks, analyzes them in parallel and prints one line  *
+     * per deck followed by the combined value histogram.        *
+     *                                                           *
+     * Pre-condition: args[0] is a positive step limit; further  *
+     * args are deck files or random:N[:seed].                   *
+     *                                                           *
+     * Post-condition: Results are printed to the console.       *
+     *                                                           *
+     * Parameters:                                               *
+     *   args - command line arguments                           *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java Analyze <maxSteps> <deck file | random:N[:seed]>...");
+            return;
+        }
+
+        long maxSteps;
+        try {
+            maxSteps = Long.parseLong(args[0].replace("_", ""));
+        } catch (NumberFormatException e) {
+            System.err.println("Error in " + args[0] + ": " + e.getMessage());
+            return;
+        }
+        if (maxSteps < 1) {
+            System.err.println("maxSteps must be positive");
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        List<int[]> decks = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            try {
+                if (args[i].startsWith("random:")) {
+                    String[] parts = args[i].split(":");
+                    if (parts.length < 2 || parts.length > 3) {
+                        throw new IllegalArgumentException("expected random:N[:seed]");
+                    }
+                    int count = Integer.parseInt(parts[1]);
+                    if (count < 1) {
+                        throw new IllegalArgumentException("deck count must be positive");
+                    }
+                    Random random = parts.length > 2 ? new Random(Long.parseLong(parts[2])) : new Random();
+                    for (int n = 0; n < count; n++) {
+                        List<Integer> deck = new ArrayList<>();
+                        for (int v = 1; v <= 28; v++) {
+                            deck.add(v);
+                        }
+                        Collections.shuffle(deck, random);
+                        names.add("random#" + n);
+                        decks.add(Deck.toArray(deck));
+                    }
+                } else {
+                    String[] tokens = Files.readString(Path.of(args[i])).trim().split("\\s+");
+                    decks.add(Deck.parseDeck(tokens, false));
+                    names.add(args[i]);
+                }
+            } catch (IOException e) {
+                System.err.println("Error in " + args[i] + ": cannot read deck file");
+                return;
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error in " + args[i] + ": " + e.getMessage());
+                return;
+            }
+        }
+
+        System.out.println("\nDecks: " + decks.size());
+        System.out.println("Step limit per deck: " + maxSteps);
+        System.out.println("Workers: " + ForkJoinPool.commonPool().getParallelism());
+
+        Result[] results = new Result[decks.size()];
+        long start = System.nanoTime();
+        ForkJoinPool.commonPool().invoke(new AnalyzeTask(decks, maxSteps, results, 0, results.length));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%n%-24s %14s %10s %14s %9s %9s%n",
+                "Deck", "Period", "Tail", "Steps", "Reject%", "Chi^2");
+        Result total = new Result();
+        for (int i = 0; i < results.length; i++) {
+            Result r = results[i];
+            r.name = names.get(i);
+            double chi = r.chiSquare();
+            System.out.printf("%-24s %14s %10s %14d %8.3f%% %9s%n",
+                    r.name,
+                    r.period == -1 ? ">" + r.steps : String.valueOf(r.period),
+                    r.tail == -1 ? "-" : String.valueOf(r.tail),
+                    r.steps, 100 * r.rejectionRate(),
+                    Double.isNaN(chi) ? "-" : String.format("%.2f", chi));
+
+            total.steps += r.steps;
+            total.rejections += r.rejections;
+            for (int v = 1; v <= 26; v++) {
+                total.histogram[v] += r.histogram[v];
+            }
+        }
+
+        // Chi^2 has 25 degrees of freedom; about 37.7 is the 95% point for a uniform source
+        System.out.printf("%nTotal steps: %d in %.3f s (%.0f steps/s)%n",
+                total.steps, seconds, total.steps / seconds);
+        double totalChi = total.chiSquare();
+        System.out.printf("Rejection rate: %.4f%%  Chi^2 (25 df): %s%n",
+                100 * total.rejectionRate(), Double.isNaN(totalChi) ? "-" : String.format("%.2f", totalChi));
+
+        long letters = total.steps - total.rejections;
+        System.out.println("\nValue histogram:");
+        for (int v = 1; v <= 26; v++) {
+            System.out.printf("  %2d %-3s %14d  %6.3f%%%n",
+                    v, Deck.cardLabel(v), total.histogram[v], letters == 0 ? 0 : 100.0 * total.histogram[v] / letters);
+        }
+    }
+
+
+    /************************************************************\
+     * Method: analyze                                           *
+     * Purpose: Runs Brent's cycle detection on the deck state,  *
+     * collecting statistics from every step the leading deck    *
+     * takes. If a cycle is found, a second pass finds the tail  *
+     * length (steps before the deck enters the cycle).          *
+     *                                                           *
+     * Pre-condition: start is a full deck (see Deck.parseDeck). *
+     *                                                           *
+     * Post-condition: start is unchanged.                       *
+     *                                                           *
+     * Parameters:                                               *
+     *   start    - initial deck                                 *
+     *   maxSteps - stop after this many steps without a cycle   *
+     *                                                           *
+     * Returns: Result statistics for the deck                   *
+     \************************************************************/
+
+
+    static Result analyze(int[] start, long maxSteps) {
+        Result result = new Result();
+        int[] hare = start.clone();
+        int[] scratch = new int[hare.length];
+        long[] tortoiseState = new long[3];
+        long[] hareState = new long[3];
+
+        pack(hare, tortoiseState);
+        record(result, Deck.step(hare, scratch));
+        pack(hare, hareState);
+
+        // power is the current window size, lambda the distance from the saved state
+        long power = 1;
+        long lambda = 1;
+        while (!Arrays.equals(tortoiseState, hareState)) {
+            if (result.steps >= maxSteps) {
+                return result;
+            }
+            if (power == lambda) {
+                System.arraycopy(hareState, 0, tortoiseState, 0, 3);
+                power <<= 1;
+                lambda = 0;
+            }
+            record(result, Deck.step(hare, scratch));
+            pack(hare, hareState);
+            lambda++;
+        }
+        result.period = lambda;
+
+        // Start one deck lambda steps ahead, then walk both until they meet
+        int[] behind = start.clone();
+        int[] ahead = start.clone();
+        for (long i = 0; i < lambda; i++) {
+            Deck.step(ahead, scratch);
+        }
+        long tail = 0;
+        pack(behind, tortoiseState);
+        pack(ahead, hareState);
+        while (!Arrays.equals(tortoiseState, hareState)) {
+            Deck.step(behind, scratch);
+            Deck.step(ahead, scratch);
+            pack(behind, tortoiseState);
+            pack(ahead, hareState);
+            tail++;
+        }
+        result.tail = tail;
+        return result;
+    }
+
+
+    /************************************************************\
+     * Method: record                                            *
+     * Purpose: Adds the output of one deck step to the stats.   *
+     *                                                           *
+     * Parameters:                                               *
+     *   result - statistics to update                           *
+     *   value  - value returned by Deck.step (1–26 or -1)       *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    private static void record(Result result, int value) {
+        result.steps++;
+        if (value == -1) {
+            result.rejections++;
+        } else {
+            result.histogram[value]++;
+        }
+    }
+
+
+    /************************************************************\
+     * Method: pack                                              *
+     * Purpose: Packs a 28 card deck into three longs, 5 bits    *
+     * per card and 12 cards per long, so two states can be      *
+     * compared with three long comparisons.                     *
+     *                                                           *
+     * Pre-condition: deck is a full 28 card deck (checked by    *
+     * Deck.parseDeck); out has length 3.                        *
+     *                                                           *
+     * Post-condition: out holds the packed deck.                *
+     *                                                           *
+     * Parameters:                                               *
+     *   deck - deck to pack                                     *
+     *   out  - destination for the packed state                 *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    static void pack(int[] deck, long[] out) {
+        long a = 0;
+        long b = 0;
+        long c = 0;
+        for (int i = 0; i < 12; i++) {
+            a = (a << 5) | deck[i];
+            b = (b << 5) | deck[i + 12];
+        }
+        for (int i = 24; i < 28; i++) {
+            c = (c << 5) | deck[i];
+        }
+        out[0] = a;
+        out[1] = b;
+        out[2] = c;
+    }
+
+
+    /************************************************************\
+     * Class: AnalyzeTask                                        *
+     * Purpose: Fork-join task over a range of decks. Ranges are *
+     * split in half until each task holds a single deck.        *
+     \************************************************************/
+
+
+    static class AnalyzeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<int[]> decks;
+        private final long maxSteps;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        AnalyzeTask(List<int[]> decks, long maxSteps, Result[] results, int from, int to) {
+            this.decks = decks;
+            this.maxSteps = maxSteps;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = from + (to - from) / 2;
+                invokeAll(new AnalyzeTask(decks, maxSteps, results, from, mid),
+                        new AnalyzeTask(decks, maxSteps, results, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                results[i] = analyze(decks.get(i), maxSteps);
+            }
+        }
+    }
+}
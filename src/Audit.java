@@ -0,0 +1,556 @@
+
+/*
+/============================================================\
+| Assignment: Program # 1: Solitaire Encryption               |
+| Author: Joseph Anneli                                       |
+|                                                             |
+| This file implements a known-plaintext key audit for the    |
+| Solitaire cipher. Given a ciphertext and a crib (the known  |
+| start of the plaintext) it searches a constrained space of  |
+| candidate decks in parallel and reports every deck whose    |
+| keystream matches. Candidates are rejected at the first     |
+| mismatching keystream letter.                               |
+|                                                             |
+| Language: Java (JDK 24)                                     |
+| Ex. Packages: java.io, java.nio.file, java.util,            |
+|               java.util.concurrent                          |
+\============================================================/
+*/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/************************************************************\
+ * Class: Audit                                              *
+ * Author: Joseph Anneli                                     *
+ *                                                           *
+ * Purpose: Checks whether weak or near-ordered decks can be *
+ * recovered from a ciphertext and a crib. The candidate     *
+ * space is one of:                                          *
+ *   swaps   - up to N card swaps applied to a base deck     *
+ *   dict    - passphrases from a word list keying a deck    *
+ *   partial - a deck file with unknown cards marked "?"     *
+ * The space is split across all cores with fork-join.       *
+ *                                                           *
+ * Usage:                                                    *
+ *   java Audit <cipher file> <crib> swaps <deck> <maxSwaps> *
+ *   java Audit <cipher file> <crib> dict <deck> <word list> *
+ *   java Audit <cipher file> <crib> partial <deck template> *
+ *                                                           *
+ * Class Methods:                                            *
+ *  - main(String[]): void                                   *
+ *  - expectedKeystream(String, String): int[]               *
+ *  - matches(int[], int[], int[]): int                      *
+ \************************************************************/
+
+
+public class Audit {
+
+    // Ranges smaller than this are searched by a single worker
+    private static final long GRAIN = 1 << 12;
+
+
+    /************************************************************\
+     * Method: main                                              *
+     * Purpose: Entry point of the audit. Reads the ciphertext,  *
+     * builds the candidate space, runs the parallel search and  *
+     * prints every recovered deck with its decryption.          *
+     *                                                           *
+     * Pre-condition: args follow one of the usage forms above.  *
+     *                                                           *
+     * Post-condition: Matching decks and search statistics are  *
+     * printed to the console.                                   *
+     *                                                           *
+     * Parameters:                                               *
+     *   args - command line arguments                           *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            printUsage();
+            return;
+        }
+
+        String cipher = "";
+        try {
+            List<String> lines = Files.readAllLines(Path.of(args[0]));
+            if (lines.isEmpty()) {
+                System.err.println("Error reading encrypted message: " + args[0] + " is empty");
+                return;
+            }
+            cipher = lines.get(0).trim();
+        } catch (IOException e) {
+            System.err.println("Error reading encrypted message: " + e.getMessage());
+            return;
+        }
+
+        int[] expected;
+        CandidateSpace space;
+        try {
+            expected = expectedKeystream(cipher, args[1]);
+            switch (args[2]) {
+                case "swaps":
+                    if (args.length != 5) {
+                        printUsage();
+                        return;
+                    }
+                    space = new SwapSpace(readDeck(args[3]), Integer.parseInt(args[4]));
+                    break;
+                case "dict":
+                    if (args.length != 5) {
+                        printUsage();
+                        return;
+                    }
+                    space = new DictionarySpace(readDeck(args[3]), Files.readAllLines(Path.of(args[4])));
+                    break;
+                case "partial":
+                    if (args.length != 4) {
+                        printUsage();
+                        return;
+                    }
+                    space = new PartialSpace(Files.readString(Path.of(args[3])).trim().split("\\s+"));
+                    break;
+                default:
+                    printUsage();
+                    return;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            return;
+        }
+
+        System.out.println("\nCiphertext: " + cipher);
+        System.out.println("Crib length: " + expected.length);
+        System.out.println("Candidates: " + space.size());
+        System.out.println("Workers: " + ForkJoinPool.commonPool().getParallelism());
+
+        LongAdder letters = new LongAdder();
+        long start = System.nanoTime();
+        List<int[]> found = ForkJoinPool.commonPool()
+                .invoke(new SearchTask(space, expected, letters, 0, space.size()));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Different swap sets can reach the same deck; report each deck once
+        Map<String, int[]> unique = new LinkedHashMap<>();
+        for (int[] deck : found) {
+            unique.putIfAbsent(Arrays.toString(deck), deck);
+        }
+
+        System.out.printf("%nSearched in %.3f s (%.0f candidates/s, %.0f keystream letters/s)%n",
+                seconds, space.size() / seconds, letters.sum() / seconds);
+        System.out.println("Matching decks: " + unique.size());
+
+        List<Integer> cipherNumbers = Decrypt.lettersToNumbers(cipher);
+        for (int[] deck : unique.values()) {
+            StringBuilder labels = new StringBuilder();
+            for (int value : deck) {
+                labels.append(Deck.cardLabel(value)).append(' ');
+            }
+
+            int[] work = deck.clone();
+            int[] scratch = new int[work.length];
+            List<Integer> keystream = new ArrayList<>();
+            for (int i = 0; i < cipherNumbers.size(); i++) {
+                keystream.add(Deck.nextKeystream(work, scratch));
+            }
+
+            System.out.println("\nDeck: " + labels.toString().trim());
+            System.out.println("Decrypted: " + Decrypt.decryptMessage(cipherNumbers, keystream));
+        }
+    }
+
+
+    /************************************************************\
+     * Method: printUsage                                        *
+     * Purpose: Prints the accepted command line forms.          *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    private static void printUsage() {
+        System.err.println("Usage:");
+        System.err.println("  java Audit <cipher file> <crib> swaps <deck file> <maxSwaps>");
+        System.err.println("  java Audit <cipher file> <crib> dict <deck file> <word list>");
+        System.err.println("  java Audit <cipher file> <crib> partial <deck template>");
+    }
+
+
+    /************************************************************\
+     * Method: readDeck                                          *
+     * Purpose: Reads a deck file into an int array.             *
+     *                                                           *
+     * Pre-condition: File holds 28 distinct card labels;        *
+     * otherwise IllegalArgumentException is thrown.             *
+     *                                                           *
+     * Parameters:                                               *
+     *   path - deck file path                                   *
+     *                                                           *
+     * Returns: int[] deck values                                *
+     \************************************************************/
+
+
+    private static int[] readDeck(String path) throws IOException {
+        String[] tokens = Files.readString(Path.of(path)).trim().split("\\s+");
+        return Deck.parseDeck(tokens, false);
+    }
+
+
+    /************************************************************\
+     * Method: expectedKeystream                                 *
+     * Purpose: Recovers the keystream values that must have     *
+     * produced the ciphertext from the crib (k = c - p mod 26,  *
+     * with 0 mapped to 26).                                     *
+     *                                                           *
+     * Pre-condition: crib is no longer than the ciphertext.     *
+     *                                                           *
+     * Parameters:                                               *
+     *   cipher - ciphertext letters                             *
+     *   crib   - known plaintext at the start of the message    *
+     *                                                           *
+     * Returns: int[] expected keystream values (1–26)           *
+     \************************************************************/
+
+
+    static int[] expectedKeystream(String cipher, String crib) {
+        List<Integer> c = Decrypt.lettersToNumbers(cipher);
+        List<Integer> p = Encrypt.lettersToNumbers(crib);
+        if (p.isEmpty() || p.size() > c.size()) {
+            throw new IllegalArgumentException("Crib must be non-empty and no longer than the ciphertext");
+        }
+
+        int[] expected = new int[p.size()];
+        for (int i = 0; i < expected.length; i++) {
+            int k = (c.get(i) - p.get(i) + 26) % 26;
+            expected[i] = k == 0 ? 26 : k;
+        }
+        return expected;
+    }
+
+
+    /************************************************************\
+     * Method: matches                                           *
+     * Purpose: Runs the deck and compares its keystream against *
+     * the expected values, stopping at the first mismatch.      *
+     *                                                           *
+     * Pre-condition: deck holds a candidate; scratch is at least*
+     * as long as deck.                                          *
+     *                                                           *
+     * Post-condition: deck is advanced and no longer holds the  *
+     * original candidate.                                       *
+     *                                                           *
+     * Parameters:                                               *
+     *   deck     - candidate deck (modified)                    *
+     *   scratch  - working buffer                               *
+     *   expected - keystream values from expectedKeystream      *
+     *                                                           *
+     * Returns: number of letters that matched; equal to         *
+     * expected.length for a full match                          *
+     \************************************************************/
+
+
+    static int matches(int[] deck, int[] scratch, int[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (Deck.nextKeystream(deck, scratch) != expected[i]) {
+                return i;
+            }
+        }
+        return expected.length;
+    }
+
+
+    /************************************************************\
+     * Interface: CandidateSpace                                 *
+     * Purpose: An indexed set of candidate decks. fill writes   *
+     * candidate number index into deck and may use scratch;     *
+     * both must be deckSize() long. Implementations must be     *
+     * safe to call from many threads.                           *
+     \************************************************************/
+
+
+    interface CandidateSpace {
+        long size();
+
+        int deckSize();
+
+        void fill(long index, int[] deck, int[] scratch);
+    }
+
+
+    /************************************************************\
+     * Class: SwapSpace                                          *
+     * Purpose: Every set of at most maxSwaps distinct card swaps*
+     * applied to a base deck. Each set is applied in one fixed  *
+     * order, which reaches the same decks as every ordering     *
+     * while searching each set only once. Sets are numbered by  *
+     * size and then in combinatorial number order.              *
+     \************************************************************/
+
+
+    static class SwapSpace implements CandidateSpace {
+        private final int[] base;
+        private final int maxSwaps;
+        private final int[] first;
+        private final int[] second;
+        private final long[][] binomial;
+        private final long size;
+
+        SwapSpace(int[] base, int maxSwaps) {
+            if (maxSwaps < 0) {
+                throw new IllegalArgumentException("maxSwaps must not be negative");
+            }
+            this.base = base;
+
+            // Every pair i < j, numbered from 0
+            int n = base.length;
+            int pairs = n * (n - 1) / 2;
+            first = new int[pairs];
+            second = new int[pairs];
+            int p = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    first[p] = i;
+                    second[p] = j;
+                    p++;
+                }
+            }
+            this.maxSwaps = Math.min(maxSwaps, pairs);
+
+            // binomial[c][k] = c choose k, for c up to pairs and k up to maxSwaps
+            try {
+                binomial = new long[pairs + 1][this.maxSwaps + 1];
+                for (int c = 0; c <= pairs; c++) {
+                    binomial[c][0] = 1;
+                    for (int k = 1; k <= this.maxSwaps && k <= c; k++) {
+                        binomial[c][k] = Math.addExact(binomial[c - 1][k - 1], binomial[c - 1][k]);
+                    }
+                }
+
+                long total = 0;
+                for (int k = 0; k <= this.maxSwaps; k++) {
+                    total = Math.addExact(total, binomial[pairs][k]);
+                }
+                size = total;
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Too many candidates for maxSwaps " + maxSwaps);
+            }
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public int deckSize() {
+            return base.length;
+        }
+
+        public void fill(long index, int[] deck, int[] scratch) {
+            System.arraycopy(base, 0, deck, 0, base.length);
+
+            int swaps = 0;
+            while (index >= binomial[first.length][swaps]) {
+                index -= binomial[first.length][swaps];
+                swaps++;
+            }
+
+            // Decode the set one pair at a time, highest pair first
+            for (int k = swaps; k >= 1; k--) {
+                int low = k - 1;
+                int high = first.length - 1;
+                while (low < high) {
+                    int mid = (low + high + 1) >>> 1;
+                    if (binomial[mid][k] <= index) {
+                        low = mid;
+                    } else {
+                        high = mid - 1;
+                    }
+                }
+                index -= binomial[low][k];
+
+                int t = deck[first[low]];
+                deck[first[low]] = deck[second[low]];
+                deck[second[low]] = t;
+            }
+        }
+    }
+
+
+    /************************************************************\
+     * Class: DictionarySpace                                    *
+     * Purpose: One candidate per passphrase in a word list, each*
+     * keyed from the same base deck with Deck.keyDeck.          *
+     \************************************************************/
+
+
+    static class DictionarySpace implements CandidateSpace {
+        private final int[] base;
+        private final List<String> words;
+
+        DictionarySpace(int[] base, List<String> words) {
+            this.base = base;
+            this.words = new ArrayList<>();
+            for (String word : words) {
+                if (!word.isBlank()) {
+                    this.words.add(word.trim());
+                }
+            }
+        }
+
+        public long size() {
+            return words.size();
+        }
+
+        public int deckSize() {
+            return base.length;
+        }
+
+        public void fill(long index, int[] deck, int[] scratch) {
+            System.arraycopy(base, 0, deck, 0, base.length);
+            Deck.keyDeck(deck, scratch, words.get((int) index));
+        }
+    }
+
+
+    /************************************************************\
+     * Class: PartialSpace                                       *
+     * Purpose: A deck template where some positions are unknown *
+     * ("?"). Candidates are every arrangement of the missing    *
+     * cards into those positions, decoded from the index in     *
+     * factorial number order.                                   *
+     \************************************************************/
+
+
+    static class PartialSpace implements CandidateSpace {
+        private final int[] template;
+        private final int[] unknown;
+        private final int[] missing;
+        private final long[] factorial;
+
+        PartialSpace(String[] tokens) {
+            template = Deck.parseDeck(tokens, true);
+            boolean[] seen = new boolean[template.length + 1];
+            List<Integer> unknownPositions = new ArrayList<>();
+            for (int i = 0; i < template.length; i++) {
+                if (template[i] == 0) {
+                    unknownPositions.add(i);
+                } else {
+                    seen[template[i]] = true;
+                }
+            }
+
+            unknown = new int[unknownPositions.size()];
+            for (int i = 0; i < unknown.length; i++) {
+                unknown[i] = unknownPositions.get(i);
+            }
+            missing = new int[unknown.length];
+            int m = 0;
+            for (int v = 1; v < seen.length; v++) {
+                if (!seen[v]) {
+                    missing[m++] = v;
+                }
+            }
+            if (unknown.length > 20) {
+                throw new IllegalArgumentException("Too many unknown cards: " + unknown.length);
+            }
+
+            factorial = new long[unknown.length + 1];
+            factorial[0] = 1;
+            for (int i = 1; i < factorial.length; i++) {
+                factorial[i] = factorial[i - 1] * i;
+            }
+        }
+
+        public long size() {
+            return factorial[unknown.length];
+        }
+
+        public int deckSize() {
+            return template.length;
+        }
+
+        public void fill(long index, int[] deck, int[] scratch) {
+            System.arraycopy(template, 0, deck, 0, template.length);
+
+            // scratch holds the cards not yet placed
+            int remaining = missing.length;
+            System.arraycopy(missing, 0, scratch, 0, remaining);
+            for (int i = 0; i < unknown.length; i++) {
+                long f = factorial[remaining - 1];
+                int pick = (int) (index / f);
+                index %= f;
+                deck[unknown[i]] = scratch[pick];
+                System.arraycopy(scratch, pick + 1, scratch, pick, remaining - pick - 1);
+                remaining--;
+            }
+        }
+    }
+
+
+    /************************************************************\
+     * Class: SearchTask                                         *
+     * Purpose: Fork-join task over a range of candidate indices.*
+     * Large ranges are split in half; small ranges are checked  *
+     * directly with reused deck and scratch buffers.            *
+     \************************************************************/
+
+
+    static class SearchTask extends RecursiveTask<List<int[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateSpace space;
+        private final int[] expected;
+        private final LongAdder letters;
+        private final long from;
+        private final long to;
+
+        SearchTask(CandidateSpace space, int[] expected, LongAdder letters, long from, long to) {
+            this.space = space;
+            this.expected = expected;
+            this.letters = letters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            if (to - from > GRAIN) {
+                long mid = from + (to - from) / 2;
+                SearchTask left = new SearchTask(space, expected, letters, from, mid);
+                left.fork();
+                List<int[]> found = new SearchTask(space, expected, letters, mid, to).compute();
+                found.addAll(left.join());
+                return found;
+            }
+
+            List<int[]> found = new ArrayList<>();
+            int[] deck = new int[space.deckSize()];
+            int[] scratch = new int[space.deckSize()];
+            long checked = 0;
+            for (long index = from; index < to; index++) {
+                space.fill(index, deck, scratch);
+                int matched = matches(deck, scratch, expected);
+                checked += Math.min(matched + 1, expected.length);
+                if (matched == expected.length) {
+                    space.fill(index, deck, scratch);
+                    found.add(deck.clone());
+                }
+            }
+            letters.add(checked);
+            return found;
+        }
+    }
+}
@@ -29,7 +29,13 @@ import java.util.*;
  *                                                           *
  * Class Methods:                                            *
  *  - parseCard(String): int                                 *
+ *  - cardLabel(int): String                                 *
  *  - nextKeystream(ArrayList<Integer>): int                 *
+ *  - toArray(List<Integer>): int[]                          *
+ *  - parseDeck(String[], boolean): int[]                    *
+ *  - nextKeystream(int[], int[]): int                       *
+ *  - step(int[], int[]): int                                *
+ *  - keyDeck(int[], int[], String): void                    *
  *                                                           *
  \************************************************************/
 
@@ -98,6 +104,50 @@ public class Deck {
     }
 
 
+    /************************************************************\
+     * Method: cardLabel                                         *
+     * Purpose: Converts a numeric card value back into its      *
+     * string label (the inverse of parseCard).                  *
+     *                                                           *
+     * Pre-condition: value must be in the range 1–28.           *
+     *                                                           *
+     * Post-condition: Returns a label such as "AC", "10D", "JB".*
+     *                                                           *
+     * Parameters:                                               *
+     *   value - numeric card value                              *
+     *                                                           *
+     * Returns: String card label                                *
+     \************************************************************/
+
+
+    static String cardLabel(int value) {
+        if (value == 27) {
+            return "JA";
+        }
+        if (value == 28) {
+            return "JB";
+        }
+        if (value < 1 || value > 28) {
+            throw new IllegalArgumentException("Invalid card value: " + value);
+        }
+
+        int rank = ((value - 1) % 13) + 1;
+        char suit = value <= 13 ? 'C' : 'D';
+        switch (rank) {
+            case 1:
+                return "A" + suit;
+            case 11:
+                return "J" + suit;
+            case 12:
+                return "Q" + suit;
+            case 13:
+                return "K" + suit;
+            default:
+                return rank + "" + suit;
+        }
+    }
+
+
     /************************************************************\
      * Method: nextKeystream                                     *
      * Purpose: Produces the next valid keystream value by       *
@@ -296,4 +346,243 @@ public class Deck {
         }
         return keystream;
     }
+
+
+    /************************************************************\
+     * Method: toArray                                           *
+     * Purpose: Copies a deck list into a primitive int array    *
+     * for use with the array-based deck operations below.       *
+     *                                                           *
+     * Pre-condition: Deck must contain valid values (1–28).     *
+     *                                                           *
+     * Post-condition: Returns a new array; the list is unchanged*
+     *                                                           *
+     * Parameters:                                               *
+     *   deckNumber - the current deck of integers               *
+     *                                                           *
+     * Returns: int[] copy of the deck                           *
+     \************************************************************/
+
+
+    static int[] toArray(List<Integer> deckNumber) {
+        int[] deck = new int[deckNumber.size()];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = deckNumber.get(i);
+        }
+        return deck;
+    }
+
+
+    /************************************************************\
+     * Method: parseDeck                                         *
+     * Purpose: Parses deck tokens and checks that they form a   *
+     * full deck: exactly 28 distinct values 1–28. If unknown is *
+     * allowed, "?" tokens count as open slots and are stored as *
+     * 0.                                                        *
+     *                                                           *
+     * Pre-condition: tokens are card labels (or "?").           *
+     *                                                           *
+     * Post-condition: Throws IllegalArgumentException if the    *
+     * tokens are not a valid deck.                              *
+     *                                                           *
+     * Parameters:                                               *
+     *   tokens       - card labels, one per position            *
+     *   allowUnknown - whether "?" tokens are accepted          *
+     *                                                           *
+     * Returns: int[] deck values (0 for unknown positions)      *
+     \************************************************************/
+
+
+    static int[] parseDeck(String[] tokens, boolean allowUnknown) {
+        if (tokens.length != 28) {
+            throw new IllegalArgumentException("Deck must have 28 cards, found " + tokens.length);
+        }
+
+        int[] deck = new int[tokens.length];
+        boolean[] seen = new boolean[29];
+        for (int i = 0; i < tokens.length; i++) {
+            if (allowUnknown && tokens[i].startsWith("?")) {
+                continue;
+            }
+            deck[i] = parseCard(tokens[i]);
+            if (seen[deck[i]]) {
+                throw new IllegalArgumentException("Duplicate card: " + tokens[i]);
+            }
+            seen[deck[i]] = true;
+        }
+        return deck;
+    }
+
+
+    /************************************************************\
+     * Method: nextKeystream                                     *
+     * Purpose: Array version of nextKeystream. Produces exactly *
+     * the same values as the ArrayList version but works in     *
+     * place on an int[] so it can be called billions of times   *
+     * without allocating.                                       *
+     *                                                           *
+     * Pre-condition: deck holds valid values (1–28); scratch is *
+     * at least as long as deck.                                 *
+     *                                                           *
+     * Post-condition: Returns a keystream value (1–26). deck is *
+     * advanced; scratch contents are undefined.                 *
+     *                                                           *
+     * Parameters:                                               *
+     *   deck    - the current deck of integers                  *
+     *   scratch - working buffer reused between calls           *
+     *                                                           *
+     * Returns: int keystream value (1–26)                       *
+     \************************************************************/
+
+
+    static int nextKeystream(int[] deck, int[] scratch) {
+        while (true) {
+            int keystream = step(deck, scratch);
+            if (keystream != -1) {   // only return if not a joker
+                return keystream;
+            }
+        }
+    }
+
+
+    /************************************************************\
+     * Method: step                                              *
+     * Purpose: Applies one round of deck operations (joker A,   *
+     * joker B, triple cut, bottom cut) and looks up the output  *
+     * card without skipping jokers.                             *
+     *                                                           *
+     * Pre-condition: deck holds valid values (1–28); scratch is *
+     * at least as long as deck.                                 *
+     *                                                           *
+     * Post-condition: deck is advanced by exactly one round.    *
+     *                                                           *
+     * Parameters:                                               *
+     *   deck    - the current deck of integers                  *
+     *   scratch - working buffer reused between calls           *
+     *                                                           *
+     * Returns: int keystream value (1–26) or -1 if joker        *
+     \************************************************************/
+
+
+    static int step(int[] deck, int[] scratch) {
+        int n = deck.length;
+
+        // Find both jokers once and track them through the moves
+        int jokerA = -1;
+        int jokerB = -1;
+        for (int i = 0; i < n; i++) {
+            if (deck[i] == 27) {
+                jokerA = i;
+            } else if (deck[i] == 28) {
+                jokerB = i;
+            }
+        }
+        if (jokerA == -1) {
+            throw new IllegalStateException("Joker A not found in deck.");
+        }
+        if (jokerB == -1) {
+            throw new IllegalStateException("Joker B (28) not found in deck.");
+        }
+
+        // Joker A down one, with wrap-around (same as moveJokerA)
+        int next = jokerA + 1 == n ? 0 : jokerA + 1;
+        deck[jokerA] = deck[next];
+        deck[next] = 27;
+        if (jokerB == next) {
+            jokerB = jokerA;
+        }
+        jokerA = next;
+
+        // Joker B down two, with wrap-around (same as moveJokerB)
+        for (int move = 0; move < 2; move++) {
+            next = jokerB + 1 == n ? 0 : jokerB + 1;
+            deck[jokerB] = deck[next];
+            deck[next] = 28;
+            if (jokerA == next) {
+                jokerA = jokerB;
+            }
+            jokerB = next;
+        }
+
+        // Triple cut from deck into scratch
+        int a = Math.min(jokerA, jokerB);
+        int b = Math.max(jokerA, jokerB);
+        int topLength = n - 1 - b;
+        System.arraycopy(deck, b + 1, scratch, 0, topLength);
+        System.arraycopy(deck, a, scratch, topLength, b - a + 1);
+        System.arraycopy(deck, 0, scratch, topLength + b - a + 1, a);
+
+        // Bottom cut from scratch back into deck (jokers count as 27)
+        int lastNumber = scratch[n - 1];
+        int cutSize = Math.min(lastNumber, 27);
+        int middle = n - 1 - cutSize;
+        System.arraycopy(scratch, cutSize, deck, 0, middle);
+        System.arraycopy(scratch, 0, deck, middle, cutSize);
+        deck[n - 1] = lastNumber;
+
+        int keystream = deck[Math.min(deck[0], 27)];
+        if (keystream == 27 || keystream == 28) {
+            return -1;
+        }
+        return keystream;
+    }
+
+
+    /************************************************************\
+     * Method: keyDeck                                           *
+     * Purpose: Keys a deck from a passphrase. For each letter   *
+     * one round of deck operations is applied, followed by a    *
+     * count cut using the letter's value (A=1..Z=26).           *
+     *                                                           *
+     * Pre-condition: deck holds valid values (1–28); scratch is *
+     * at least as long as deck.                                 *
+     *                                                           *
+     * Post-condition: deck is keyed; non-letters are ignored.   *
+     *                                                           *
+     * Parameters:                                               *
+     *   deck       - the deck to key in place                   *
+     *   scratch    - working buffer                             *
+     *   passphrase - key text                                   *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    static void keyDeck(int[] deck, int[] scratch, String passphrase) {
+        for (int i = 0; i < passphrase.length(); i++) {
+            char c = Character.toUpperCase(passphrase.charAt(i));
+            if (c >= 'A' && c <= 'Z') {
+                step(deck, scratch);
+                countCut(deck, scratch, (c - 'A') + 1);
+            }
+        }
+    }
+
+
+    /************************************************************\
+     * Method: countCut                                          *
+     * Purpose: Moves cutSize cards from the top to just above   *
+     * the bottom card, which stays in place. Used by keyDeck to *
+     * cut by the passphrase letter.                             *
+     *                                                           *
+     * Pre-condition: 0 <= cutSize <= deck.length - 1.           *
+     *                                                           *
+     * Post-condition: Deck is updated with the count cut.       *
+     *                                                           *
+     * Parameters:                                               *
+     *   deck    - the current deck of integers                  *
+     *   scratch - working buffer                                *
+     *   cutSize - number of cards to move                       *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    private static void countCut(int[] deck, int[] scratch, int cutSize) {
+        int n = deck.length;
+        int middle = n - 1 - cutSize;
+        System.arraycopy(deck, cutSize, scratch, 0, middle);
+        System.arraycopy(deck, 0, scratch, middle, cutSize);
+        System.arraycopy(scratch, 0, deck, 0, n - 1);
+    }
 }
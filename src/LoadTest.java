@@ -0,0 +1,562 @@
+
+/*
+/============================================================\
+| Assignment: Program # 1: Solitaire Encryption               |
+| Author: Joseph Anneli                                       |
+|                                                             |
+| This file implements a sustained-load generator for the     |
+| encrypt and decrypt path. Worker threads run a mix of       |
+| encryptions and decryptions of random messages for a fixed  |
+| time, recording the latency of every operation in a         |
+| high-dynamic-range histogram. Throughput and latency        |
+| percentiles are printed and written to a JSON report.       |
+|                                                             |
+| Language: Java (JDK 24)                                     |
+| Ex. Packages: java.io, java.nio.file, java.util,            |
+|               java.util.concurrent                          |
+\============================================================/
+*/
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+
+/************************************************************\
+ * Class: LoadTest                                           *
+ * Author: Joseph Anneli                                     *
+ *                                                           *
+ * Purpose: Drives Encrypt.encryptMessage, Decrypt.          *
+ * decryptMessage and Deck.nextKeystream under concurrent    *
+ * load and reports throughput and tail latency, so engine   *
+ * versions can be compared under the same workload.         *
+ *                                                           *
+ * Usage: java LoadTest [option=value]...                    *
+ *   deck=prog1deck.dat   deck file                          *
+ *   threads=N            worker threads (default: cores)    *
+ *   duration=10          measured seconds                   *
+ *   warmup=2             unmeasured seconds before that     *
+ *   sizes=uniform:5-500  fixed:N, uniform:MIN-MAX or        *
+ *                        exp:MEAN letters per message       *
+ *                        (padded up to a multiple of 5 with *
+ *                        X, as Encrypt does; the report has *
+ *                        the actual mean and max)           *
+ *   reuse=0.5            chance to keep the deck state      *
+ *   mix=0.5              share of operations that encrypt   *
+ *   rate=0               total ops/s at fixed intervals,    *
+ *                        timed from the scheduled start; 0  *
+ *                        runs closed-loop (back to back)    *
+ *                        (ops still queued at the end of    *
+ *                        the window are counted as missed)  *
+ *   seed=1               random seed                        *
+ *   out=loadtest.json    report file                        *
+ *                                                           *
+ * Class Methods:                                            *
+ *  - main(String[]): void                                   *
+ \************************************************************/
+
+
+public class LoadTest {
+
+
+    /************************************************************\
+     * Method: main                                              *
+     * Purpose: Entry point of the load test. Parses options,    *
+     * runs the workers, merges their histograms and writes the  *
+     * report.                                                   *
+     *                                                           *
+     * Pre-condition: Options are given as key=value pairs.      *
+     *                                                           *
+     * Post-condition: Results are printed and the JSON report   *
+     * is written to the out file.                               *
+     *                                                           *
+     * Parameters:                                               *
+     *   args - command line options                             *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("deck", "prog1deck.dat");
+        options.put("threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        options.put("duration", "10");
+        options.put("warmup", "2");
+        options.put("sizes", "uniform:5-500");
+        options.put("reuse", "0.5");
+        options.put("mix", "0.5");
+        options.put("rate", "0");
+        options.put("seed", "1");
+        options.put("out", "loadtest.json");
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+                System.err.println("Unknown option: " + arg);
+                System.err.println("Options: " + options.keySet());
+                return;
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        String[] deckTokens;
+        try {
+            deckTokens = Files.readString(Path.of(options.get("deck"))).trim().split("\\s+");
+        } catch (IOException e) {
+            System.err.println("Error reading deck file: " + options.get("deck"));
+            return;
+        }
+
+        int threads;
+        double duration;
+        double warmup;
+        SizeDistribution sizes;
+        double reuse;
+        double mix;
+        long seed;
+        double rate;
+        try {
+            Deck.parseDeck(deckTokens, false);
+            threads = Integer.parseInt(options.get("threads"));
+            duration = Double.parseDouble(options.get("duration"));
+            warmup = Double.parseDouble(options.get("warmup"));
+            sizes = new SizeDistribution(options.get("sizes"));
+            reuse = Double.parseDouble(options.get("reuse"));
+            mix = Double.parseDouble(options.get("mix"));
+            seed = Long.parseLong(options.get("seed"));
+            rate = Double.parseDouble(options.get("rate"));
+
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be at least 1");
+            }
+            if (!(duration > 0) || !(warmup >= 0)) {
+                throw new IllegalArgumentException("duration must be positive and warmup not negative");
+            }
+            if (!(reuse >= 0 && reuse <= 1) || !(mix >= 0 && mix <= 1)) {
+                throw new IllegalArgumentException("reuse and mix must be between 0 and 1");
+            }
+            if (!(rate >= 0)) {
+                throw new IllegalArgumentException("rate must not be negative");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid option: " + e.getMessage());
+            System.err.println("Options: " + options.keySet());
+            return;
+        }
+
+        // In open-loop mode each worker runs one operation every interval
+        long interval = rate > 0 ? Math.max(1, (long) (threads * 1e9 / rate)) : 0;
+        String mode = rate > 0 ? "open-loop" : "closed-loop";
+
+        System.out.println("\nOptions: " + options);
+
+        long start = System.nanoTime();
+        long measureFrom = start + (long) (warmup * 1e9);
+        long measureTo = measureFrom + (long) (duration * 1e9);
+
+        Histogram encrypt = new Histogram();
+        Histogram decrypt = new Histogram();
+        long letters = 0;
+        long maxLetters = 0;
+        long freshDecks = 0;
+        long missed = 0;
+        long lastEnd = measureTo;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Worker>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long firstStart = start + interval * t / threads;   // stagger the workers
+                Worker worker = new Worker(deckTokens, sizes, reuse, mix, new Random(seed + t),
+                        interval, firstStart, measureFrom, measureTo);
+                futures.add(pool.submit(worker, worker));
+            }
+
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                encrypt.add(worker.encrypt);
+                decrypt.add(worker.decrypt);
+                letters += worker.letters;
+                maxLetters = Math.max(maxLetters, worker.maxLetters);
+                freshDecks += worker.freshDecks;
+                missed += worker.missed;
+                lastEnd = Math.max(lastEnd, worker.lastEnd);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Throughput is over the time until the last measured operation finished,
+        // so an overloaded open-loop run does not just report its target rate
+        double seconds = (lastEnd - measureFrom) / 1e9;
+
+        Histogram all = new Histogram();
+        all.add(encrypt);
+        all.add(decrypt);
+
+        printSummary("encrypt", encrypt, seconds);
+        printSummary("decrypt", decrypt, seconds);
+        printSummary("all", all, seconds);
+        double meanLetters = all.count() == 0 ? 0 : (double) letters / all.count();
+        System.out.printf("Letters/s: %.0f  Fresh decks: %d%n", letters / seconds, freshDecks);
+        System.out.printf("Message letters: mean %.1f  max %d%n", meanLetters, maxLetters);
+        System.out.println("Mode: " + mode + (rate > 0
+                ? ", latency from scheduled start" : ", latency from operation start"));
+        if (rate > 0) {
+            System.out.println("Missed (scheduled but not started in time): " + missed);
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"options\": {");
+        String separator = "";
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            json.append(separator).append("\n    \"").append(option.getKey()).append("\": \"")
+                    .append(option.getValue().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            separator = ",";
+        }
+        json.append("\n  },\n");
+        json.append("  \"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"cores\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        json.append("  \"mode\": \"").append(mode).append("\",\n");
+        json.append("  \"targetOpsPerSecond\": ").append(rate > 0 ? String.valueOf(rate) : "null").append(",\n");
+        json.append("  \"latencyMeasuredFrom\": \"")
+                .append(rate > 0 ? "scheduled start" : "operation start").append("\",\n");
+        json.append("  \"missed\": ").append(missed).append(",\n");
+        json.append("  \"messageLetters\": {\"mean\": ").append(String.format("%.1f", meanLetters))
+                .append(", \"max\": ").append(maxLetters).append("},\n");
+        json.append("  \"lettersPerSecond\": ").append(Math.round(letters / seconds)).append(",\n");
+        json.append("  \"freshDecks\": ").append(freshDecks).append(",\n");
+        json.append("  \"latencyUnit\": \"ns\",\n");
+        json.append("  \"elapsedSeconds\": ").append(String.format("%.3f", seconds)).append(",\n");
+        json.append("  \"operations\": {\n");
+        appendJson(json, "encrypt", encrypt, seconds);
+        json.append(",\n");
+        appendJson(json, "decrypt", decrypt, seconds);
+        json.append(",\n");
+        appendJson(json, "all", all, seconds);
+        json.append("\n  }\n}\n");
+
+        try (PrintWriter out = new PrintWriter(options.get("out"))) {
+            out.print(json);
+        } catch (IOException e) {
+            System.err.println("Error writing report: " + e.getMessage());
+            return;
+        }
+        System.out.println("\nReport written to " + options.get("out"));
+    }
+
+
+    /************************************************************\
+     * Method: printSummary                                      *
+     * Purpose: Prints throughput and latency percentiles for    *
+     * one operation type, in microseconds.                      *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    private static void printSummary(String name, Histogram h, double seconds) {
+        System.out.printf("%n%-8s %10d ops %12.0f ops/s%n", name, h.count(), h.count() / seconds);
+        System.out.printf("         p50 %.1f us  p99 %.1f us  p99.9 %.1f us  max %.1f us%n",
+                h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.max() / 1e3);
+    }
+
+
+    /************************************************************\
+     * Method: appendJson                                        *
+     * Purpose: Appends one operation type to the JSON report.   *
+     *                                                           *
+     * Returns: None                                             *
+     \************************************************************/
+
+
+    private static void appendJson(StringBuilder json, String name, Histogram h, double seconds) {
+        json.append("    \"").append(name).append("\": {")
+                .append("\"count\": ").append(h.count())
+                .append(", \"opsPerSecond\": ").append(Math.round(h.count() / seconds))
+                .append(", \"min\": ").append(h.min())
+                .append(", \"mean\": ").append(Math.round(h.mean()))
+                .append(", \"p50\": ").append(h.percentile(50))
+                .append(", \"p90\": ").append(h.percentile(90))
+                .append(", \"p99\": ").append(h.percentile(99))
+                .append(", \"p99.9\": ").append(h.percentile(99.9))
+                .append(", \"p99.99\": ").append(h.percentile(99.99))
+                .append(", \"max\": ").append(h.max())
+                .append('}');
+    }
+
+
+    /************************************************************\
+     * Class: SizeDistribution                                   *
+     * Purpose: Message lengths in letters, parsed from          *
+     * fixed:N, uniform:MIN-MAX or exp:MEAN.                     *
+     \************************************************************/
+
+
+    static class SizeDistribution {
+        private final String kind;
+        private final int low;
+        private final int high;
+
+        SizeDistribution(String spec) {
+            String[] parts = spec.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid size distribution: " + spec);
+            }
+            kind = parts[0];
+            switch (kind) {
+                case "fixed":
+                case "exp":
+                    low = Integer.parseInt(parts[1]);
+                    high = low;
+                    break;
+                case "uniform":
+                    String[] range = parts[1].split("-");
+                    if (range.length != 2) {
+                        throw new IllegalArgumentException("Invalid size distribution: " + spec);
+                    }
+                    low = Integer.parseInt(range[0]);
+                    high = Integer.parseInt(range[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid size distribution: " + spec);
+            }
+            if (low < 1 || high < low) {
+                throw new IllegalArgumentException("Invalid size distribution: " + spec);
+            }
+        }
+
+        int next(Random random) {
+            switch (kind) {
+                case "uniform":
+                    return low + random.nextInt(high - low + 1);
+                case "exp":
+                    return 1 + (int) (-Math.log(1 - random.nextDouble()) * (low - 1));
+                default:
+                    return low;
+            }
+        }
+    }
+
+
+    /************************************************************\
+     * Class: Worker                                             *
+     * Purpose: One load thread. Runs operations until the end   *
+     * of the measured window and records the latency of those   *
+     * that start inside it. Closed-loop (interval 0) runs them  *
+     * back to back and times each from its actual start.        *
+     * Open-loop runs one every interval and times each from its *
+     * scheduled start, so a stall also counts against the       *
+     * operations that queued behind it.                         *
+     \************************************************************/
+
+
+    static class Worker implements Runnable {
+        private final String[] deckTokens;
+        private final SizeDistribution sizes;
+        private final double reuse;
+        private final double mix;
+        private final Random random;
+        private final long interval;
+        private final long firstStart;
+        private final long measureFrom;
+        private final long measureTo;
+
+        final Histogram encrypt = new Histogram();
+        final Histogram decrypt = new Histogram();
+        long letters;
+        long maxLetters;
+        long freshDecks;
+        long missed;
+        long lastEnd;
+
+        private ArrayList<Integer> deckNumbers;
+
+        Worker(String[] deckTokens, SizeDistribution sizes, double reuse, double mix, Random random,
+               long interval, long firstStart, long measureFrom, long measureTo) {
+            this.deckTokens = deckTokens;
+            this.sizes = sizes;
+            this.reuse = reuse;
+            this.mix = mix;
+            this.random = random;
+            this.interval = interval;
+            this.firstStart = firstStart;
+            this.measureFrom = measureFrom;
+            this.measureTo = measureTo;
+        }
+
+        @Override
+        public void run() {
+            long scheduled = firstStart;
+            while (true) {
+                // Build the input outside the timed section
+                boolean isEncrypt = random.nextDouble() < mix;
+                boolean fresh = deckNumbers == null || random.nextDouble() >= reuse;
+                StringBuilder text = new StringBuilder();
+                int size = sizes.next(random);
+                for (int i = 0; i < size; i++) {
+                    text.append((char) ('A' + random.nextInt(26)));
+                }
+                while (text.length() % 5 != 0) {
+                    text.append('X');
+                }
+                String message = text.toString();
+
+                long begin;
+                if (interval > 0) {
+                    if (scheduled >= measureTo) {
+                        return;
+                    }
+                    // Wait for the scheduled start; if behind schedule, start at once
+                    for (long wait; (wait = scheduled - System.nanoTime()) > 0; ) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (System.nanoTime() >= measureTo) {
+                        // The window closed with operations still queued; count them, don't run them
+                        long first = scheduled;
+                        if (first < measureFrom) {
+                            first += (measureFrom - first + interval - 1) / interval * interval;
+                        }
+                        if (first < measureTo) {
+                            missed += (measureTo - first + interval - 1) / interval;
+                        }
+                        return;
+                    }
+                    begin = scheduled;
+                    scheduled += interval;
+                } else {
+                    begin = System.nanoTime();
+                    if (begin >= measureTo) {
+                        return;
+                    }
+                }
+
+                if (fresh) {
+                    deckNumbers = new ArrayList<>();
+                    for (String token : deckTokens) {
+                        deckNumbers.add(Deck.parseCard(token));
+                    }
+                }
+                List<Integer> numbers = isEncrypt
+                        ? Encrypt.lettersToNumbers(message)
+                        : Decrypt.lettersToNumbers(message);
+                ArrayList<Integer> keystreamResult = new ArrayList<>();
+                for (int i = 0; i < numbers.size(); i++) {
+                    keystreamResult.add(Deck.nextKeystream(deckNumbers));
+                }
+                String result = isEncrypt
+                        ? Encrypt.encryptMessage(numbers, keystreamResult)
+                        : Decrypt.decryptMessage(numbers, keystreamResult);
+
+                long end = System.nanoTime();
+                // Checking the result keeps the work from being optimized away
+                if (begin >= measureFrom && result.length() == message.length()) {
+                    (isEncrypt ? encrypt : decrypt).record(end - begin);
+                    letters += message.length();
+                    maxLetters = Math.max(maxLetters, message.length());
+                    lastEnd = end;
+                    if (fresh) {
+                        freshDecks++;
+                    }
+                }
+            }
+        }
+    }
+
+
+    /************************************************************\
+     * Class: Histogram                                          *
+     * Purpose: High-dynamic-range latency histogram. Values     *
+     * below 2048 have their own bucket; above that each power   *
+     * of two is split into 1024 buckets, so any value is kept   *
+     * to within 0.1% with a fixed number of buckets from 1 ns   *
+     * up to Long.MAX_VALUE. Not thread safe; each worker has    *
+     * its own and they are merged with add.                     *
+     \************************************************************/
+
+
+    static class Histogram {
+        private static final int SUB_BUCKET_BITS = 10;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final long[] counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+        private long count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max;
+
+        void record(long value) {
+            value = Math.max(value, 0);
+            counts[index(value)]++;
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long min() {
+            return count == 0 ? 0 : min;
+        }
+
+        long max() {
+            return max;
+        }
+
+        double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        // Highest value in the bucket holding the given percentile, capped at max
+        long percentile(double percent) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percent / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static int index(long value) {
+            int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+            return shift * SUB_BUCKETS + (int) (value >>> shift);
+        }
+
+        private static long highestValue(int index) {
+            int shift = Math.max(0, index / SUB_BUCKETS - 1);
+            long sub = index - (long) shift * SUB_BUCKETS;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+}